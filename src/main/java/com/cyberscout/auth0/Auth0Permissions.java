@@ -0,0 +1,176 @@
+package com.cyberscout.auth0;
+
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+
+/**
+ * <p>
+ * Permission checks for use in Spring Security method expressions. The bean is
+ * registered under the name {@code auth0}, so it can be referenced as follows:
+ * </p>
+ * <pre>
+ *     &#64;PreAuthorize("&#64;auth0.hasAll('read:things', 'write:things')")
+ * </pre>
+ * <p>
+ * The current principal's authorities are mapped once per request into a
+ * compact bitset, and each distinct argument list is compiled once into a
+ * bitset mask. A check is then a handful of word operations, rather than a scan
+ * of the authority list for every permission.
+ * </p>
+ * <p>
+ * Permissions that have never been seen in any principal's authorities, as
+ * well as {@code null} or blank permissions, are never granted.
+ * </p>
+ */
+@Slf4j
+public class Auth0Permissions {
+
+    private static final int MAX_COMPILED_MASKS = 1024;
+    private static final String GRANTED_ATTRIBUTE = Auth0Permissions.class.getName() + ".GRANTED";
+
+    private final PermissionDictionary dictionary = new PermissionDictionary();
+    private final ConcurrentMap<List<String>, PermissionSet> compiledMasks = new ConcurrentHashMap<>();
+
+
+    /**
+     * Determines whether the current user has been granted the given
+     * permission.
+     *
+     * @param permission The required permission
+     * @return {@code true} if the permission has been granted; {@code false}
+     *         otherwise
+     */
+    public boolean has(String permission) {
+
+        return this.hasAll(permission);
+    }
+
+
+    /**
+     * Determines whether the current user has been granted all of the given
+     * permissions.
+     *
+     * @param permissions The required permissions
+     * @return {@code true} if every permission has been granted;
+     *         {@code false} otherwise
+     */
+    public boolean hasAll(String... permissions) {
+
+        PermissionSet granted = this.currentPermissions();
+        PermissionSet required = this.compile(permissions, true);
+        return granted != null && required != null && granted.containsAll(required);
+    }
+
+
+    /**
+     * Determines whether the current user has been granted at least one of the
+     * given permissions.
+     *
+     * @param permissions The candidate permissions
+     * @return {@code true} if any of the permissions has been granted;
+     *         {@code false} otherwise
+     */
+    public boolean hasAny(String... permissions) {
+
+        PermissionSet granted = this.currentPermissions();
+        PermissionSet candidates = this.compile(permissions, false);
+        return granted != null && candidates != null && granted.intersects(candidates);
+    }
+
+
+    /**
+     * Compiles the given permissions into a mask. Unknown permissions are
+     * skipped, or cause {@code null} to be returned if all of them are
+     * required. Only masks made up entirely of known permissions are cached,
+     * so neither the dictionary nor the cache grows from runtime arguments.
+     */
+    private PermissionSet compile(String[] permissions, boolean requireAll) {
+
+        if (permissions == null) {
+            return null;
+        }
+        // SpEL builds a new array on every call, so key by its contents
+        List<String> key = Arrays.asList(permissions);
+        PermissionSet mask = this.compiledMasks.get(key);
+        if (mask != null) {
+            return mask;
+        }
+        int[] bits = new int[permissions.length];
+        int count = 0;
+        for (String permission : permissions) {
+            int index = this.dictionary.indexOf(permission);
+            if (index != PermissionDictionary.UNKNOWN) {
+                bits[count++] = index;
+            }
+            else if (requireAll) {
+                return null;
+            }
+        }
+        mask = PermissionSet.of(Arrays.copyOf(bits, count));
+        if (count == permissions.length && this.compiledMasks.size() < MAX_COMPILED_MASKS) {
+            this.compiledMasks.putIfAbsent(Arrays.asList(permissions.clone()), mask);
+        }
+        return mask;
+    }
+
+
+    private PermissionSet currentPermissions() {
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            return null;
+        }
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return this.encode(auth);
+        }
+        Object cached = request.getAttribute(GRANTED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached instanceof GrantedPermissions && ((GrantedPermissions) cached).authentication == auth) {
+            return ((GrantedPermissions) cached).permissions;
+        }
+        PermissionSet permissions = this.encode(auth);
+        request.setAttribute(GRANTED_ATTRIBUTE, new GrantedPermissions(auth, permissions),
+                             RequestAttributes.SCOPE_REQUEST);
+        return permissions;
+    }
+
+
+    private PermissionSet encode(Authentication auth) {
+
+        log.trace("Mapping permissions for '{}'", auth.getName());
+        return this.dictionary.encode(auth.getAuthorities()
+                                          .stream()
+                                          .map(GrantedAuthority::getAuthority)
+                                          .collect(Collectors.toList()));
+    }
+
+
+    /**
+     * The permissions mapped for a specific authentication, cached for the
+     * duration of a request.
+     */
+    private static final class GrantedPermissions {
+
+        private final Authentication authentication;
+        private final PermissionSet permissions;
+
+
+        private GrantedPermissions(Authentication authentication, PermissionSet permissions) {
+
+            this.authentication = authentication;
+            this.permissions = permissions;
+        }
+    }
+}
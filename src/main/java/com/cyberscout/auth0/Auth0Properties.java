@@ -99,6 +99,13 @@ public class Auth0Properties {
          * then this value has no effect.
          */
         private boolean preCache = false;
+        /**
+         * The maximum number of scope-restricted tokens that each client
+         * context will cache. Tokens are cached per normalized set of scopes,
+         * and the least recently used token is evicted once this limit is
+         * reached. Must be at least 1; the default value is 16.
+         */
+        private int scopedTokenCacheSize = 16;
         /**
          * The client ID for this API. This value must be present to enable
          * Auth0 client functionality. This includes using the Authentication
@@ -213,6 +220,7 @@ public class Auth0Properties {
                 log.debug("Auth0 Client: id = {}", this.client.id);
                 log.debug("Auth0 Client: secret = {}", mask(this.client.secret));
                 log.debug("Auth0 Client: audiences = {}", this.client.audiences);
+                log.debug("Auth0 Client: scopedTokenCacheSize = {}", this.client.scopedTokenCacheSize);
                 log.debug("Auth0 Client: Management API = {}",
                           this.client.isManagementEnabled() ? "enabled" : "disabled");
             }
@@ -7,8 +7,10 @@ import com.auth0.spring.security.api.JwtAuthenticationProvider;
 import com.auth0.spring.security.api.JwtWebSecurityConfigurer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
@@ -26,6 +28,8 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
  * <li>Registers the Auth0 Spring Security integration with Spring Security</li>
  * <li>Enables Spring Security's method annotations, including the
  * {@code @Secured} and {@code @Pre/PostAuthorize} annotations</li>
+ * <li>Registers the {@link Auth0Permissions auth0} bean for permission checks
+ * in method security expressions</li>
  * </ul>
  * <p>
  * Requires the {@link Auth0Properties#getDomain() auth0.domain},
@@ -53,6 +57,24 @@ public class Auth0SecurityConfigurer extends WebSecurityConfigurerAdapter {
     }
 
 
+    /**
+     * Constructs the permission checking bean, which is named {@code auth0} so
+     * that it can be referenced from method security expressions, e.g.
+     * {@code @PreAuthorize("@auth0.hasAll('read:x', 'write:y')")}. The bean
+     * is conditional on there being no other bean named {@code auth0}, so
+     * applications can supply their own.
+     *
+     * @return The permission checking bean
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = "auth0")
+    public Auth0Permissions auth0() {
+
+        log.debug("Creating Auth0 permissions bean");
+        return new Auth0Permissions();
+    }
+
+
     @Override
     protected void configure(HttpSecurity http) throws Exception {
 
@@ -6,12 +6,24 @@ import com.auth0.exception.Auth0Exception;
 import com.auth0.json.auth.TokenHolder;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.net.AuthRequest;
 import com.cyberscout.auth0.Auth0Properties.ClientProperties;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
 
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 
 /**
@@ -28,10 +40,17 @@ import java.time.Instant;
  * Otherwise, it will acquire and cache the tokens the first time they are
  * accessed.
  * </p>
+ * <p>
+ * Tokens restricted to specific scopes can also be requested from the context.
+ * These are cached per normalized set of scopes, up to the configured
+ * {@linkplain ClientProperties#getScopedTokenCacheSize() cache size}. A request
+ * for a subset of the scopes granted to an already-cached token will reuse that
+ * token, rather than acquiring a new one.
+ * </p>
  */
 @ToString(onlyExplicitlyIncluded = true)
 @Slf4j
-// TODO Unit test me!
+// TODO Unit test the unscoped token path!
 // TODO Integration test me!
 public class ClientTokenContext {
 
@@ -40,6 +59,8 @@ public class ClientTokenContext {
     @Getter
     @ToString.Include
     private final String apiId;
+    private final Map<Set<String>, ScopedToken> scopedTokens;
+    private final Map<Set<String>, CompletableFuture<ScopedToken>> pendingTokens = new HashMap<>();
     private DecodedJWT accessToken;
     private TokenHolder tokenInfo;
     private Instant tokenExpiration;
@@ -90,6 +111,10 @@ public class ClientTokenContext {
         if (!props.hasAudience(apiId)) {
             throw new IllegalArgumentException(String.format("No audience found for '%s'", apiId));
         }
+        if (props.getScopedTokenCacheSize() < 1) {
+            throw new IllegalArgumentException(String.format("Invalid scoped token cache size: %d",
+                                                             props.getScopedTokenCacheSize()));
+        }
     }
 
 
@@ -111,6 +136,7 @@ public class ClientTokenContext {
         this.apiId = apiId;
         this.props = props;
         this.authApi = authApi;
+        this.scopedTokens = new ScopedTokenCache(props.getScopedTokenCacheSize());
     }
 
 
@@ -180,6 +206,42 @@ public class ClientTokenContext {
     }
 
 
+    /**
+     * Retrieves a decoded access token restricted to the given scopes. If a
+     * cached token has already been granted all of the requested scopes, it
+     * will be reused. Otherwise, a new token is requested and cached. If no
+     * scopes are given, this is equivalent to {@link #accessToken()}.
+     *
+     * @param scopes The scopes that the token must be granted
+     * @return The decoded access token
+     * @throws Auth0Exception If there was a problem retrieving a new access
+     *         token
+     */
+    public DecodedJWT accessToken(String... scopes) throws Auth0Exception {
+
+        Set<String> scopeSet = normalizeScopes(scopes);
+        return scopeSet.isEmpty() ? this.accessToken() : this.scopedToken(scopeSet).accessToken;
+    }
+
+
+    /**
+     * Retrieves information about a token restricted to the given scopes. If a
+     * cached token has already been granted all of the requested scopes, it
+     * will be reused. Otherwise, a new token is requested and cached. If no
+     * scopes are given, this is equivalent to {@link #tokenInfo()}.
+     *
+     * @param scopes The scopes that the token must be granted
+     * @return An object containing information about the token
+     * @throws Auth0Exception If there was a problem retrieving a new access
+     *         token
+     */
+    public TokenHolder tokenInfo(String... scopes) throws Auth0Exception {
+
+        Set<String> scopeSet = normalizeScopes(scopes);
+        return scopeSet.isEmpty() ? this.tokenInfo() : this.scopedToken(scopeSet).tokenInfo;
+    }
+
+
     /**
      * Requests a new token from Auth0 and caches it.
      *
@@ -216,4 +278,177 @@ public class ClientTokenContext {
 
         return this.tokenExpiration == null || this.tokenExpiration.isBefore(Instant.now());
     }
+
+
+    private ScopedToken scopedToken(Set<String> scopes) throws Auth0Exception {
+
+        while (true) {
+            Map.Entry<Set<String>, CompletableFuture<ScopedToken>> pending;
+            CompletableFuture<ScopedToken> request = null;
+            synchronized (this.scopedTokens) {
+                ScopedToken token = this.scopedTokens.get(scopes);
+                if (token != null && !token.isExpired()) {
+                    return token;
+                }
+                token = this.findCoveringToken(scopes);
+                if (token != null) {
+                    log.debug("Reusing cached token covering scopes {} for client '{}'", scopes, this.apiId);
+                    return token;
+                }
+                pending = this.findCoveringRequest(scopes);
+                if (pending == null) {
+                    request = new CompletableFuture<>();
+                    this.pendingTokens.put(scopes, request);
+                }
+            }
+            if (request != null) {
+                return this.requestScopedToken(scopes, request);
+            }
+            // Another thread is already requesting a token that should cover these scopes
+            log.debug("Waiting for pending token with scopes {} for client '{}'", pending.getKey(), this.apiId);
+            ScopedToken token = awaitToken(pending.getValue());
+            if (pending.getKey().equals(scopes) || token.grantedScopes.containsAll(scopes)) {
+                return token;
+            }
+        }
+    }
+
+
+    /**
+     * Requests a new scoped token and caches it, completing the pending
+     * request that other threads may be waiting on. The lock is not held
+     * during the (potentially slow) token request.
+     */
+    private ScopedToken requestScopedToken(Set<String> scopes, CompletableFuture<ScopedToken> request)
+            throws Auth0Exception {
+
+        try {
+            log.debug("Caching new token with scopes {} for client '{}'", scopes, this.apiId);
+            AuthRequest authRequest = this.authApi.requestToken(this.audience);
+            authRequest.setScope(String.join(" ", scopes));
+            ScopedToken token = new ScopedToken(authRequest.execute(), scopes);
+            synchronized (this.scopedTokens) {
+                this.scopedTokens.put(scopes, token);
+                this.pendingTokens.remove(scopes);
+            }
+            request.complete(token);
+            log.debug("New token successfully cached for client '{}'", this.apiId);
+            return token;
+        }
+        catch (Auth0Exception | RuntimeException e) {
+            synchronized (this.scopedTokens) {
+                this.pendingTokens.remove(scopes);
+            }
+            request.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+
+    private Map.Entry<Set<String>, CompletableFuture<ScopedToken>> findCoveringRequest(Set<String> scopes) {
+
+        return this.pendingTokens.entrySet()
+                                 .stream()
+                                 .filter(entry -> entry.getKey().containsAll(scopes))
+                                 .findFirst()
+                                 .orElse(null);
+    }
+
+
+    private static ScopedToken awaitToken(CompletableFuture<ScopedToken> request) throws Auth0Exception {
+
+        try {
+            return request.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof Auth0Exception) {
+                throw (Auth0Exception) e.getCause();
+            }
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+
+    private ScopedToken findCoveringToken(Set<String> scopes) {
+
+        Set<String> coveringKey = null;
+        Iterator<Map.Entry<Set<String>, ScopedToken>> entries = this.scopedTokens.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Set<String>, ScopedToken> entry = entries.next();
+            if (entry.getValue().isExpired()) {
+                entries.remove();
+            }
+            else if (coveringKey == null && entry.getValue().grantedScopes.containsAll(scopes)) {
+                coveringKey = entry.getKey();
+            }
+        }
+        // Look the token up again, so that the access order reflects its reuse
+        return coveringKey == null ? null : this.scopedTokens.get(coveringKey);
+    }
+
+
+    private static Set<String> normalizeScopes(String... scopes) {
+
+        Set<String> normalized = new TreeSet<>();
+        if (scopes != null) {
+            Arrays.stream(scopes)
+                  .filter(StringUtils::hasText)
+                  .flatMap(scope -> Arrays.stream(scope.trim().split("\\s+")))
+                  .forEach(normalized::add);
+        }
+        return Collections.unmodifiableSet(normalized);
+    }
+
+
+    /**
+     * A cached token that was requested with a specific set of scopes.
+     */
+    private static final class ScopedToken {
+
+        private final TokenHolder tokenInfo;
+        private final DecodedJWT accessToken;
+        private final Instant tokenExpiration;
+        private final Set<String> grantedScopes;
+
+
+        private ScopedToken(TokenHolder tokenInfo, Set<String> requestedScopes) {
+
+            this.tokenInfo = tokenInfo;
+            this.accessToken = JWT.decode(tokenInfo.getAccessToken());
+            this.tokenExpiration = Instant.now().plusSeconds(tokenInfo.getExpiresIn());
+            // Auth0 may grant fewer scopes than requested, so trust the token
+            String scopeClaim = this.accessToken.getClaim("scope").asString();
+            this.grantedScopes = scopeClaim == null ? requestedScopes : normalizeScopes(scopeClaim);
+        }
+
+
+        private boolean isExpired() {
+
+            return this.tokenExpiration.isBefore(Instant.now());
+        }
+    }
+
+
+    /**
+     * A bounded, least-recently-used map of scoped tokens.
+     */
+    private static final class ScopedTokenCache extends LinkedHashMap<Set<String>, ScopedToken> {
+
+        private static final long serialVersionUID = 1L;
+        private final int maxSize;
+
+
+        private ScopedTokenCache(int maxSize) {
+
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Set<String>, ScopedToken> eldest) {
+
+            return this.size() > this.maxSize;
+        }
+    }
 }
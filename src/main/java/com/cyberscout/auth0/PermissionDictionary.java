@@ -0,0 +1,67 @@
+package com.cyberscout.auth0;
+
+
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * An application-wide dictionary that assigns each permission a stable bit
+ * index. Permissions are registered the first time they are seen in an
+ * authenticated principal's authorities, so no up-front configuration is
+ * needed. Looking up a permission never registers it, so arbitrary expression
+ * arguments cannot grow the dictionary.
+ */
+final class PermissionDictionary {
+
+    /**
+     * The index returned for permissions that are not in the dictionary.
+     */
+    static final int UNKNOWN = -1;
+
+    private final ConcurrentMap<String, Integer> indices = new ConcurrentHashMap<>();
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+
+    /**
+     * Retrieves the bit index of the given permission, without registering it.
+     *
+     * @param permission The permission to look up
+     * @return The bit index of the permission, or {@link #UNKNOWN} if it is
+     *         blank or has never been registered
+     */
+    int indexOf(String permission) {
+
+        if (!StringUtils.hasText(permission)) {
+            return UNKNOWN;
+        }
+        return this.indices.getOrDefault(permission, UNKNOWN);
+    }
+
+
+    /**
+     * Builds a bitset containing each of the given permissions, registering
+     * any that have not been seen before. Blank permissions are ignored. Must
+     * only be given the authorities of an authenticated principal.
+     *
+     * @param permissions The permissions to include
+     * @return The bitset of the permissions
+     */
+    PermissionSet encode(Collection<String> permissions) {
+
+        return PermissionSet.of(permissions.stream()
+                                           .filter(StringUtils::hasText)
+                                           .mapToInt(this::register)
+                                           .toArray());
+    }
+
+
+    private int register(String permission) {
+
+        return this.indices.computeIfAbsent(permission, p -> this.nextIndex.getAndIncrement());
+    }
+}
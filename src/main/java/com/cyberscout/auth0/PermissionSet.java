@@ -0,0 +1,93 @@
+package com.cyberscout.auth0;
+
+
+import java.util.Arrays;
+
+
+/**
+ * An immutable bitset of permissions, indexed by a
+ * {@link PermissionDictionary}. Only the words between the lowest and highest
+ * bits are stored, so a set holding a few high indices stays small. Words
+ * outside that range are treated as empty.
+ */
+final class PermissionSet {
+
+    private static final PermissionSet EMPTY = new PermissionSet(0, new long[0]);
+
+    private final int offset;
+    private final long[] words;
+
+
+    private PermissionSet(int offset, long[] words) {
+
+        this.offset = offset;
+        this.words = words;
+    }
+
+
+    /**
+     * Builds a set containing the given bit indices.
+     *
+     * @param bits The (non-negative) bit indices to include
+     * @return The set of the given bits
+     */
+    static PermissionSet of(int... bits) {
+
+        if (bits.length == 0) {
+            return EMPTY;
+        }
+        int low = Arrays.stream(bits).min().getAsInt() / Long.SIZE;
+        int high = Arrays.stream(bits).max().getAsInt() / Long.SIZE;
+        long[] words = new long[high - low + 1];
+        for (int bit : bits) {
+            words[bit / Long.SIZE - low] |= 1L << bit;
+        }
+        return new PermissionSet(low, words);
+    }
+
+
+    /**
+     * Determines whether this set contains every permission in the other set.
+     *
+     * @param other The permissions that must be present
+     * @return {@code true} if all of the other permissions are present;
+     *         {@code false} otherwise
+     */
+    boolean containsAll(PermissionSet other) {
+
+        for (int i = 0; i < other.words.length; i++) {
+            if ((other.words[i] & ~this.wordAt(other.offset + i)) != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Determines whether this set contains at least one permission in the
+     * other set.
+     *
+     * @param other The permissions to look for
+     * @return {@code true} if any of the other permissions are present;
+     *         {@code false} otherwise
+     */
+    boolean intersects(PermissionSet other) {
+
+        int start = Math.max(this.offset, other.offset);
+        int end = Math.min(this.offset + this.words.length, other.offset + other.words.length);
+        for (int i = start; i < end; i++) {
+            if ((this.wordAt(i) & other.wordAt(i)) != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private long wordAt(int index) {
+
+        int i = index - this.offset;
+        return i >= 0 && i < this.words.length ? this.words[i] : 0L;
+    }
+}
@@ -0,0 +1,112 @@
+package com.cyberscout.auth0;
+
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class Auth0PermissionsTest {
+
+    private final Auth0Permissions auth0 = new Auth0Permissions();
+
+
+    @AfterEach
+    void tearDown() {
+
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+
+    @Test
+    void hasAllRequiresEveryPermission() {
+
+        authenticate("user", "N/A", "read:x", "write:y");
+
+        assertThat(this.auth0.hasAll("read:x", "write:y")).isTrue();
+        assertThat(this.auth0.hasAll("read:x")).isTrue();
+        assertThat(this.auth0.has("write:y")).isTrue();
+        assertThat(this.auth0.hasAll("read:x", "delete:z")).isFalse();
+    }
+
+
+    @Test
+    void hasAnyRequiresOnePermission() {
+
+        authenticate("user", "N/A", "read:x");
+
+        assertThat(this.auth0.hasAny("delete:z", "read:x")).isTrue();
+        assertThat(this.auth0.hasAny("delete:z", "write:y")).isFalse();
+    }
+
+
+    @Test
+    void unknownNullAndBlankPermissionsAreNotGranted() {
+
+        authenticate("user", "N/A", "read:x");
+
+        assertThat(this.auth0.has("doc:42")).isFalse();
+        assertThat(this.auth0.has(null)).isFalse();
+        assertThat(this.auth0.has(" ")).isFalse();
+        assertThat(this.auth0.hasAll((String[]) null)).isFalse();
+        assertThat(this.auth0.hasAny(null, "read:x")).isTrue();
+    }
+
+
+    @Test
+    void unauthenticatedUserHasNoPermissions() {
+
+        assertThat(this.auth0.has("read:x")).isFalse();
+    }
+
+
+    @Test
+    void permissionsAreNotSharedBetweenPrincipalsWithSameCredentials() {
+
+        authenticate("admin", "N/A", "read:x", "admin:all");
+        assertThat(this.auth0.has("admin:all")).isTrue();
+
+        authenticate("user", "N/A", "read:x");
+        assertThat(this.auth0.has("admin:all")).isFalse();
+        assertThat(this.auth0.has("read:x")).isTrue();
+    }
+
+
+    @Test
+    void permissionsAreNotSharedWithinRequestWhenAuthenticationChanges() {
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        authenticate("admin", "", "admin:all");
+        assertThat(this.auth0.has("admin:all")).isTrue();
+
+        authenticate("user", "", "read:x");
+        assertThat(this.auth0.has("admin:all")).isFalse();
+        assertThat(this.auth0.has("read:x")).isTrue();
+    }
+
+
+    @Test
+    void permissionSeenLaterIsGrantedAfterEarlierDenial() {
+
+        authenticate("user", "N/A", "read:x");
+        assertThat(this.auth0.hasAll("read:x", "write:y")).isFalse();
+
+        authenticate("other", "N/A", "read:x", "write:y");
+        assertThat(this.auth0.hasAll("read:x", "write:y")).isTrue();
+    }
+
+
+    private static void authenticate(String name, String credentials, String... authorities) {
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken(name, credentials, authorities));
+    }
+}
@@ -0,0 +1,241 @@
+package com.cyberscout.auth0;
+
+
+import com.auth0.client.auth.AuthAPI;
+import com.auth0.json.auth.TokenHolder;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.net.AuthRequest;
+import com.cyberscout.auth0.Auth0Properties.ClientProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+class ClientTokenContextTest {
+
+    private static final String API_ID = "foo";
+    private static final String AUDIENCE = "https://foo.api.example.com/";
+
+    private ClientProperties props;
+    private AuthAPI authApi;
+    private UnaryOperator<String> grantedScopes;
+    private long expiresIn;
+    private CountDownLatch requested;
+    private CountDownLatch release;
+
+
+    @BeforeEach
+    void setUp() {
+
+        this.props = new ClientProperties();
+        this.props.setId("client-id");
+        this.props.setSecret("client-secret");
+        this.props.setAudiences(Collections.singletonMap(API_ID, AUDIENCE));
+        this.props.setScopedTokenCacheSize(2);
+        this.grantedScopes = UnaryOperator.identity();
+        this.expiresIn = 3600;
+        this.requested = new CountDownLatch(1);
+        this.release = new CountDownLatch(0);
+        this.authApi = mock(AuthAPI.class);
+        when(this.authApi.requestToken(anyString())).thenAnswer(invocation -> this.newRequest());
+    }
+
+
+    @Test
+    void sameScopesReuseCachedToken() throws Exception {
+
+        ClientTokenContext context = this.context();
+
+        String first = context.accessToken("read:a", "write:b").getToken();
+        String second = context.accessToken(" write:b  read:a ").getToken();
+
+        assertThat(second).isEqualTo(first);
+        verify(this.authApi, times(1)).requestToken(AUDIENCE);
+    }
+
+
+    @Test
+    void subsetOfScopesReusesCoveringToken() throws Exception {
+
+        ClientTokenContext context = this.context();
+
+        String covering = context.accessToken("read:a", "write:b").getToken();
+        String subset = context.accessToken("read:a").getToken();
+
+        assertThat(subset).isEqualTo(covering);
+        verify(this.authApi, times(1)).requestToken(AUDIENCE);
+    }
+
+
+    @Test
+    void reuseIsLimitedToGrantedScopes() throws Exception {
+
+        this.grantedScopes = requested -> "read:a";
+        ClientTokenContext context = this.context();
+
+        context.accessToken("read:a", "write:b");
+        context.accessToken("write:b");
+
+        verify(this.authApi, times(2)).requestToken(AUDIENCE);
+    }
+
+
+    @Test
+    void requestedScopesAreUsedWhenNoScopeClaim() throws Exception {
+
+        this.grantedScopes = requested -> null;
+        ClientTokenContext context = this.context();
+
+        context.accessToken("read:a", "write:b");
+        context.accessToken("write:b");
+
+        verify(this.authApi, times(1)).requestToken(AUDIENCE);
+    }
+
+
+    @Test
+    void expiredTokensAreNotReused() throws Exception {
+
+        this.expiresIn = -1;
+        ClientTokenContext context = this.context();
+
+        context.accessToken("read:a", "write:b");
+        context.accessToken("read:a", "write:b");
+        context.accessToken("read:a");
+
+        verify(this.authApi, times(3)).requestToken(AUDIENCE);
+    }
+
+
+    @Test
+    void leastRecentlyUsedTokenIsEvicted() throws Exception {
+
+        ClientTokenContext context = this.context();
+
+        context.accessToken("a");
+        context.accessToken("b");
+        context.accessToken("a");
+        context.accessToken("c");
+        verify(this.authApi, times(3)).requestToken(AUDIENCE);
+
+        context.accessToken("a");
+        verify(this.authApi, times(3)).requestToken(AUDIENCE);
+
+        context.accessToken("b");
+        verify(this.authApi, times(4)).requestToken(AUDIENCE);
+    }
+
+
+    @Test
+    void reusingCoveringTokenMarksItRecentlyUsed() throws Exception {
+
+        ClientTokenContext context = this.context();
+
+        context.accessToken("a", "b");
+        context.accessToken("c");
+        context.accessToken("a");
+        context.accessToken("d");
+        verify(this.authApi, times(3)).requestToken(AUDIENCE);
+
+        context.accessToken("a");
+        verify(this.authApi, times(3)).requestToken(AUDIENCE);
+
+        context.accessToken("c");
+        verify(this.authApi, times(4)).requestToken(AUDIENCE);
+    }
+
+
+    @Test
+    void invalidCacheSizeIsRejected() {
+
+        this.props.setScopedTokenCacheSize(0);
+
+        assertThatIllegalArgumentException().isThrownBy(this::context);
+    }
+
+
+    @Test
+    void concurrentRequestsShareOnePendingToken() throws Exception {
+
+        this.release = new CountDownLatch(1);
+        ClientTokenContext context = this.context();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> context.accessToken("read:a", "write:b").getToken()));
+            assertThat(this.requested.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 7; i++) {
+                String[] scopes = i % 2 == 0 ? new String[] { "write:b", "read:a" } : new String[] { "read:a" };
+                results.add(executor.submit(() -> context.accessToken(scopes).getToken()));
+            }
+            // Give the other callers a chance to find the pending request
+            Thread.sleep(200);
+            this.release.countDown();
+
+            String first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(first);
+            }
+            verify(this.authApi, times(1)).requestToken(AUDIENCE);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    private ClientTokenContext context() throws Exception {
+
+        return ClientTokenContext.buildFor(API_ID, this.props, this.authApi);
+    }
+
+
+    private AuthRequest newRequest() throws Exception {
+
+        AuthRequest request = mock(AuthRequest.class);
+        String[] scope = new String[1];
+        when(request.setScope(anyString())).thenAnswer(invocation -> {
+            scope[0] = invocation.getArgument(0);
+            return request;
+        });
+        when(request.execute()).thenAnswer(invocation -> {
+            this.requested.countDown();
+            this.release.await(5, TimeUnit.SECONDS);
+            return this.newTokenHolder(scope[0]);
+        });
+        return request;
+    }
+
+
+    private TokenHolder newTokenHolder(String requestedScope) {
+
+        JWTCreator.Builder jwt = JWT.create().withAudience(AUDIENCE).withJWTId(String.valueOf(System.nanoTime()));
+        String granted = this.grantedScopes.apply(requestedScope);
+        if (granted != null) {
+            jwt.withClaim("scope", granted);
+        }
+        TokenHolder holder = mock(TokenHolder.class);
+        when(holder.getAccessToken()).thenReturn(jwt.sign(Algorithm.HMAC256("test-secret")));
+        when(holder.getExpiresIn()).thenReturn(this.expiresIn);
+        return holder;
+    }
+}
@@ -0,0 +1,47 @@
+package com.cyberscout.auth0;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class PermissionDictionaryTest {
+
+    private final PermissionDictionary dictionary = new PermissionDictionary();
+
+
+    @Test
+    void lookupDoesNotRegister() {
+
+        assertThat(this.dictionary.indexOf("read:x")).isEqualTo(PermissionDictionary.UNKNOWN);
+        assertThat(this.dictionary.indexOf("read:x")).isEqualTo(PermissionDictionary.UNKNOWN);
+    }
+
+
+    @Test
+    void encodeRegistersStableIndices() {
+
+        PermissionSet first = this.dictionary.encode(Arrays.asList("read:x", "write:y"));
+        int readIndex = this.dictionary.indexOf("read:x");
+        this.dictionary.encode(Arrays.asList("write:y", "delete:z"));
+
+        assertThat(readIndex).isNotEqualTo(PermissionDictionary.UNKNOWN);
+        assertThat(this.dictionary.indexOf("read:x")).isEqualTo(readIndex);
+        assertThat(first.containsAll(PermissionSet.of(readIndex, this.dictionary.indexOf("write:y")))).isTrue();
+        assertThat(first.intersects(PermissionSet.of(this.dictionary.indexOf("delete:z")))).isFalse();
+    }
+
+
+    @Test
+    void blankPermissionsAreIgnored() {
+
+        PermissionSet set = this.dictionary.encode(Arrays.asList(null, "", " ", "read:x"));
+
+        assertThat(this.dictionary.indexOf(null)).isEqualTo(PermissionDictionary.UNKNOWN);
+        assertThat(this.dictionary.indexOf(" ")).isEqualTo(PermissionDictionary.UNKNOWN);
+        assertThat(set.containsAll(PermissionSet.of(this.dictionary.indexOf("read:x")))).isTrue();
+    }
+}
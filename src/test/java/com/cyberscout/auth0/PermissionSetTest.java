@@ -0,0 +1,56 @@
+package com.cyberscout.auth0;
+
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class PermissionSetTest {
+
+    @Test
+    void containsAllWithinOneWord() {
+
+        PermissionSet granted = PermissionSet.of(1, 3, 5);
+
+        assertThat(granted.containsAll(PermissionSet.of(1, 5))).isTrue();
+        assertThat(granted.containsAll(PermissionSet.of(1, 2))).isFalse();
+        assertThat(granted.containsAll(PermissionSet.of())).isTrue();
+    }
+
+
+    @Test
+    void containsAllAcrossDifferentLengths() {
+
+        PermissionSet granted = PermissionSet.of(0, 70, 200);
+
+        assertThat(granted.containsAll(PermissionSet.of(70))).isTrue();
+        assertThat(granted.containsAll(PermissionSet.of(0, 200))).isTrue();
+        assertThat(granted.containsAll(PermissionSet.of(300))).isFalse();
+        assertThat(PermissionSet.of(70).containsAll(granted)).isFalse();
+        assertThat(PermissionSet.of().containsAll(PermissionSet.of(0))).isFalse();
+    }
+
+
+    @Test
+    void intersectsAcrossDifferentLengths() {
+
+        PermissionSet granted = PermissionSet.of(0, 70, 200);
+
+        assertThat(granted.intersects(PermissionSet.of(5, 200))).isTrue();
+        assertThat(PermissionSet.of(70).intersects(granted)).isTrue();
+        assertThat(granted.intersects(PermissionSet.of(1, 71, 300))).isFalse();
+        assertThat(granted.intersects(PermissionSet.of())).isFalse();
+    }
+
+
+    @Test
+    void highIndicesDoNotNeedLowWords() {
+
+        PermissionSet high = PermissionSet.of(1_000_000);
+
+        assertThat(PermissionSet.of(3, 1_000_000).containsAll(high)).isTrue();
+        assertThat(PermissionSet.of(3).containsAll(high)).isFalse();
+        assertThat(high.intersects(PermissionSet.of(1_000_000, 1_000_063))).isTrue();
+    }
+}